@@ -1,5 +1,5 @@
 public class Coordinates {
-    public Coordinates(double x, Double y) {
+    public Coordinates(double x, double y) {
         this.x = x;
         this.y = y;
     }
@@ -11,7 +11,7 @@ public class Coordinates {
         return "(" + x + ", " + y + ")";
     }
 
-    private Double y; //Поле не может быть null
+    private double y;
 
     public double getX() {
         return x;
@@ -21,11 +21,11 @@ public class Coordinates {
         this.x = x;
     }
 
-    public Double getY() {
+    public double getY() {
         return y;
     }
 
-    public void setY(Double y) {
+    public void setY(double y) {
         this.y = y;
     }
 }
\ No newline at end of file
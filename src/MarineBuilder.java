@@ -0,0 +1,71 @@
+public class MarineBuilder {
+    private String name;
+    private double x;
+    private double y;
+    private float health;
+    private AstartesCategory category;
+    private Weapon weaponType;
+    private MeleeWeapon meleeWeapon;
+    private String chapterName; // null means no chapter
+    private String world;
+
+    public MarineBuilder name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public MarineBuilder x(double x) {
+        this.x = x;
+        return this;
+    }
+
+    public MarineBuilder y(double y) {
+        this.y = y;
+        return this;
+    }
+
+    public MarineBuilder health(float health) {
+        this.health = health;
+        return this;
+    }
+
+    public MarineBuilder category(AstartesCategory category) {
+        this.category = category;
+        return this;
+    }
+
+    public MarineBuilder weaponType(Weapon weaponType) {
+        this.weaponType = weaponType;
+        return this;
+    }
+
+    public MarineBuilder meleeWeapon(MeleeWeapon meleeWeapon) {
+        this.meleeWeapon = meleeWeapon;
+        return this;
+    }
+
+    public MarineBuilder chapter(String chapterName, String world) {
+        this.chapterName = chapterName;
+        this.world = world;
+        return this;
+    }
+
+    public MarineBuilder reset() {
+        name = null;
+        x = 0;
+        y = 0;
+        health = 0;
+        category = null;
+        weaponType = null;
+        meleeWeapon = null;
+        chapterName = null;
+        world = null;
+        return this;
+    }
+
+    public SpaceMarine build(long id, long creationDate) {
+        Chapter chapter = chapterName == null ? null : new Chapter(chapterName, world);
+        return new SpaceMarine(id, name, new Coordinates(x, y), creationDate, health,
+                category, weaponType, meleeWeapon, chapter);
+    }
+}
@@ -0,0 +1,56 @@
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// one event per mutation batch; marines are copied so subscribers never share the primary's instances
+public class MarineEvent {
+
+    public enum Type {
+        INSERT,
+        UPDATE,
+        REMOVE,
+        CLEAR
+    }
+
+    private final long seq;
+    private final Type type;
+    private final Map<Long, SpaceMarine> marines; //inserted or updated marines, empty for REMOVE and CLEAR
+    private final Set<Long> removedKeys; //empty unless REMOVE
+
+    public MarineEvent(long seq, Type type, Map<Long, SpaceMarine> marines, Set<Long> removedKeys) {
+        this.seq = seq;
+        this.type = type;
+        Map<Long, SpaceMarine> copies = new HashMap<>();
+        marines.forEach((k, m) -> copies.put(k, new SpaceMarine(m)));
+        this.marines = Collections.unmodifiableMap(copies);
+        this.removedKeys = Collections.unmodifiableSet(new HashSet<>(removedKeys));
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Map<Long, SpaceMarine> getMarines() {
+        return marines;
+    }
+
+    public Set<Long> getRemovedKeys() {
+        return removedKeys;
+    }
+
+    @Override
+    public String toString() {
+        return "MarineEvent{" +
+                "seq=" + seq +
+                ", type=" + type +
+                ", marines=" + marines.keySet() +
+                ", removedKeys=" + removedKeys +
+                '}';
+    }
+}
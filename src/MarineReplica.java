@@ -0,0 +1,65 @@
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// read-only copy of a PivoLab collection kept up to date from its change events,
+// so show/group style reads can run on other threads
+public class MarineReplica implements Consumer<MarineEvent> {
+
+    private final Map<Long, SpaceMarine> marines = new ConcurrentHashMap<>();
+
+    private final Map<Long, Long> countsByCreationDate = new ConcurrentHashMap<>();
+
+    private volatile long lastSeq = 0;
+
+    public MarineReplica(PivoLab source) {
+        source.subscribe(this);
+    }
+
+    @Override
+    public void accept(MarineEvent event) {
+        // the initial replay shares one seq, live events are strictly increasing
+        if (event.getSeq() < lastSeq) {
+            return;
+        }
+        switch (event.getType()) {
+            case INSERT:
+            case UPDATE:
+                // every replica keeps its own copies, since all subscribers receive the same event
+                event.getMarines().forEach((k, m) -> {
+                    uncount(marines.put(k, new SpaceMarine(m)));
+                    countsByCreationDate.merge(m.getCreationDate(), 1L, Long::sum);
+                });
+                break;
+            case REMOVE:
+                for (Long k : event.getRemovedKeys()) {
+                    uncount(marines.remove(k));
+                }
+                break;
+            case CLEAR:
+                marines.clear();
+                countsByCreationDate.clear();
+                break;
+        }
+        lastSeq = event.getSeq();
+    }
+
+    private void uncount(SpaceMarine old) {
+        if (old != null) {
+            countsByCreationDate.computeIfPresent(old.getCreationDate(), (d, n) -> n == 1 ? null : n - 1);
+        }
+    }
+
+    public Map<Long, SpaceMarine> getMarines() {
+        return Collections.unmodifiableMap(marines);
+    }
+
+    public Map<Long, Long> getCountsByCreationDate() {
+        return Collections.unmodifiableMap(countsByCreationDate);
+    }
+
+    public long getLastSeq() {
+        return lastSeq;
+    }
+}
@@ -0,0 +1,70 @@
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+// dd-MM-yy dates stored as epoch days; stateless, so safe to use from any thread
+public class PivoDates {
+
+    // same window SimpleDateFormat uses for yy: from 80 years ago to 20 years ahead;
+    // the old window started at the current time, so the start day itself rolls forward
+    private static final LocalDate CENTURY_START = LocalDate.now().minusYears(80);
+
+    private PivoDates() {}
+
+    public static long today() {
+        return LocalDate.now().toEpochDay();
+    }
+
+    // accepts 1-2 digit day and month like the old lenient parser; a two-digit year
+    // falls into the century window, any other year is taken as written
+    public static long parse(String s) {
+        int dayEnd = s.indexOf('-');
+        int monthEnd = dayEnd < 0 ? -1 : s.indexOf('-', dayEnd + 1);
+        if (monthEnd < 0) {
+            throw new DateTimeException("expected dd-MM-yy: " + s);
+        }
+        int day = number(s, 0, dayEnd, 2);
+        int month = number(s, dayEnd + 1, monthEnd, 2);
+        int year = number(s, monthEnd + 1, s.length(), 4);
+        if (s.length() - monthEnd - 1 == 2) {
+            int startYear = CENTURY_START.getYear();
+            year += startYear - startYear % 100;
+            if (year < startYear || year == startYear && (month < CENTURY_START.getMonthValue()
+                    || month == CENTURY_START.getMonthValue() && day <= CENTURY_START.getDayOfMonth())) {
+                year += 100;
+            }
+        }
+        return LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    public static String format(long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        int yy = Math.floorMod(date.getYear(), 100);
+        char[] out = new char[8];
+        putTwoDigits(out, 0, date.getDayOfMonth());
+        out[2] = '-';
+        putTwoDigits(out, 3, date.getMonthValue());
+        out[5] = '-';
+        putTwoDigits(out, 6, yy);
+        return new String(out);
+    }
+
+    private static int number(String s, int from, int to, int maxDigits) {
+        if (to <= from || to - from > maxDigits) {
+            throw new DateTimeException("expected dd-MM-yy: " + s);
+        }
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new DateTimeException("expected dd-MM-yy: " + s);
+            }
+            n = n * 10 + (c - '0');
+        }
+        return n;
+    }
+
+    private static void putTwoDigits(char[] out, int i, int n) {
+        out[i] = (char) ('0' + n / 10);
+        out[i + 1] = (char) ('0' + n % 10);
+    }
+}
@@ -1,11 +1,16 @@
 import java.io.*;
 import java.nio.file.Files;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.util.function.Consumer;
+import java.util.function.DoublePredicate;
+import java.util.function.ToDoubleFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -15,11 +20,39 @@ public class PivoLab {
 
     private final String saveFilePath = System.getenv("PIVOFILE");
 
+    private final String snapshotPath = saveFilePath + ".snap";
+
     long maxid = 0;
 
-    private static final SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yy");
+    private static final Pattern FIELD_SEPARATOR = Pattern.compile(" *, *");
+
+    // prompts are built once instead of on every readMarine call
+    private static final String NAME_PROMPT = "Enter name: ";
+    private static final String X_PROMPT = "Enter x coordinate: ";
+    private static final String Y_PROMPT = "Enter y coordinate: ";
+    private static final String HEALTH_PROMPT = "Enter health (must be >0): ";
+    private static final String CATEGORY_PROMPT = "Enter a category (one of "
+            + Arrays.toString(AstartesCategory.values()) + ") or leave empty: ";
+    private static final String WEAPON_PROMPT = "Enter a weapong type (one of "
+            + Arrays.toString(Weapon.values()) + "): ";
+    private static final String MELEE_WEAPON_PROMPT = "Enter a melee weapon type (one of "
+            + Arrays.toString(MeleeWeapon.values()) + "): ";
+    private static final String CHAPTER_PROMPT = "Do you want to add a chapter (y/n): ";
+    private static final String CHAPTER_NAME_PROMPT = "Enter chapter name: ";
+    private static final String WORLD_PROMPT = "Enter world name or leave empty: ";
+    private static final String FILTER_CATEGORY_PROMPT = "Enter category (one of "
+            + Arrays.toString(AstartesCategory.values()) + "): ";
+
+    private final MarineBuilder builder = new MarineBuilder();
+
+    private final List<Consumer<MarineEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    private long seq = 0;
 
     public void readFile() throws PivoFileException {
+        if (readSnapshot()) {
+            return;
+        }
         InputStream stream;
         try {
             stream = new FileInputStream(saveFilePath);
@@ -27,6 +60,7 @@ public class PivoLab {
             throw PivoFileException.notFound();
         }
         InputStreamReader reader = new InputStreamReader(stream);
+        Map<Long, SpaceMarine> batch = new HashMap<>();
         String line;
         int i = 1;
         while (true) {
@@ -35,7 +69,7 @@ public class PivoLab {
             } catch (IOException e) {
                 throw PivoFileException.readProblem();
             }
-            String[] fields = line.split(" *, *");
+            String[] fields = FIELD_SEPARATOR.split(line);
             if (fields.length != 12) {
                 throw PivoFileException.nFields(i, fields.length);
             }
@@ -65,10 +99,10 @@ public class PivoLab {
                 throw PivoFileException.invalidField(i, "y coord");
             }
             Coordinates coordinates = new Coordinates(x, y);
-            Date creationDate;
+            long creationDate;
             try {
-                 creationDate = dateFormat.parse(fields[5]);
-            } catch (ParseException e) {
+                creationDate = PivoDates.parse(fields[5]);
+            } catch (DateTimeException e) {
                 throw PivoFileException.invalidField(i, "date");
             }
             float health;
@@ -112,10 +146,25 @@ public class PivoLab {
                 }
                 chapter = new Chapter(chapterName, world);
             }
-            marines.put(key, new SpaceMarine(id, name, coordinates, creationDate, health, category, weaponType, meleeWeapon, chapter));
+            batch.put(key, new SpaceMarine(id, name, coordinates, creationDate, health, category, weaponType, meleeWeapon, chapter));
             i++;
         }
-        maxid = marines.values().stream().map(SpaceMarine::getId).max(Long::compare).orElse(0L);
+        insertAll(batch);
+    }
+
+    // only trust the snapshot if it was taken of the csv as it is now
+    private boolean readSnapshot() {
+        File csv = new File(saveFilePath);
+        File snapshot = new File(snapshotPath);
+        if (!csv.isFile() || !snapshot.isFile()) {
+            return false;
+        }
+        try {
+            insertAll(PivoSnapshot.read(snapshot.toPath(), csv.length(), csv.lastModified()));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
     }
 
     private static String readLine(InputStreamReader reader) throws IOException {
@@ -131,16 +180,29 @@ public class PivoLab {
         return builder.toString();
     }
 
-    private <T> void simpleSingleArg(String[] args, Function<String, T> parse, Predicate<T> isValid, String commandName, String argName, String validityErrorMessage, Consumer<T> action) {
-        if (args.length == 1) {
+    // command lines are split on runs of spaces by hand so no String[] is built per command
+    private static int skipSpaces(String line, int i) {
+        while (i < line.length() && line.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int tokenEnd(String line, int i) {
+        int end = line.indexOf(' ', i);
+        return end < 0 ? line.length() : end;
+    }
+
+    private <T> void simpleSingleArg(String arg, boolean extraArgs, Function<String, T> parse, Predicate<T> isValid, String commandName, String argName, String validityErrorMessage, Consumer<T> action) {
+        if (arg == null) {
             System.out.println(argName + " required");
         }
-        else if (args.length > 2) {
+        else if (extraArgs) {
             System.out.println(commandName + " only takes 1 same-line argument");
         }
         else {
             try {
-                T t = parse.apply(args[1]);
+                T t = parse.apply(arg);
                 if (isValid.test(t)) {
                     action.accept(t);
                 }
@@ -159,151 +221,174 @@ public class PivoLab {
         }
         while (scanner.hasNextLine()) {
             String line = scanner.nextLine();
-            String[] args = line.split(" +");
-            if (args.length > 0) {
-                String command = args[0];
-                if (command.equals("help")) {
-                    help();
-                }
-                else if (command.equals("info")) {
-                    info();
-                }
-                else if (command.equals("show")) {
-                    show();
-                }
-                else if (command.equals("insert")) {
-                    simpleSingleArg(args,
-                            Long::parseLong,
-                            k -> !marines.containsKey(k),
-                            "insert",
-                            "key",
-                            "key already present",
-                            k -> insert(k, readMarine(scanner, quiet)));
-                }
-                else if (command.equals("update")) {
-                    simpleSingleArg(args,
-                            Long::parseLong,
-                            id -> marines.values().stream().anyMatch(m -> m.getId().equals(id)),
-                            "update",
-                            "id",
-                            "id not found",
-                            id -> update(id, readMarine(scanner, quiet)));
-                }
-                else if (command.equals("remove_key")) {
-                    simpleSingleArg(args,
-                            Long::parseLong,
-                            marines::containsKey,
-                            "remove_key",
-                            "key",
-                            "key not found",
-                            this::removeKey);
+            int commandEnd = tokenEnd(line, 0);
+            String command = line.substring(0, commandEnd);
+            int argStart = skipSpaces(line, commandEnd);
+            int argEnd = tokenEnd(line, argStart);
+            String arg = argStart == argEnd ? null : line.substring(argStart, argEnd);
+            boolean extraArgs = skipSpaces(line, argEnd) < line.length();
+            if (command.isEmpty() && arg == null && !line.isEmpty()) {
+                // a line of only spaces has no command and is ignored
+            }
+            else if (command.equals("help")) {
+                help();
+            }
+            else if (command.equals("info")) {
+                info();
+            }
+            else if (command.equals("show")) {
+                show();
+            }
+            else if (command.equals("insert")) {
+                simpleSingleArg(arg, extraArgs,
+                        Long::parseLong,
+                        k -> !marines.containsKey(k),
+                        "insert",
+                        "key",
+                        "key already present",
+                        k -> insert(k, readMarine(scanner, quiet)));
+            }
+            else if (command.equals("update")) {
+                simpleSingleArg(arg, extraArgs,
+                        Long::parseLong,
+                        this::hasId,
+                        "update",
+                        "id",
+                        "id not found",
+                        id -> update(id, readMarine(scanner, quiet)));
+            }
+            else if (command.equals("remove_key")) {
+                simpleSingleArg(arg, extraArgs,
+                        Long::parseLong,
+                        marines::containsKey,
+                        "remove_key",
+                        "key",
+                        "key not found",
+                        this::removeKey);
+            }
+            else if (command.equals("clear")) {
+                clear();
+            }
+            else if (command.equals("save")) {
+                save();
+            }
+            else if (command.equals("execute_script")) {
+                if (arg == null) {
+                    System.out.println("file required");
                 }
-                else if (command.equals("clear")) {
-                    clear();
+                else if (extraArgs) {
+                    System.out.println("execute_script only takes 1 argument");
                 }
-                else if (command.equals("save")) {
+                else {
+                    File scriptFile = new File(arg);
                     try {
-                        PrintWriter writer = new PrintWriter(saveFilePath);
-                        marines.forEach((key, m) -> writer.println(
-                                String.join(", ", key.toString(), m.getId().toString(), m.getName()
-                                        , Double.toString(m.getCoordinates().getX())
-                                        , m.getCoordinates().getY().toString(), dateFormat.format(m.getCreationDate())
-                                        , m.getHealth().toString()
-                                        , m.getCategory() == null ? "null" : m.getCategory().toString()
-                                        , m.getWeaponType().toString(), m.getMeleeWeapon().toString()
-                                        , m.getChapter() == null ? "null" : m.getChapter().getName()
-                                        , m.getChapter() == null || m.getChapter().getWorld() == null
-                                                ? "null" : m.getChapter().getWorld())
-                        ));
-                        writer.close();
-                    } catch (FileNotFoundException e) {
-                        System.out.println("problem with save file");
-                    }
-                }
-                else if (command.equals("execute_script")) {
-                    if (args.length == 1) {
-                        System.out.println("file required");
-                    }
-                    else if (args.length > 2) {
-                        System.out.println("execute_script only takes 1 argument");
-                    }
-                    else {
-                        File scriptFile = new File(args[1]);
-                        try {
-                            if (Files.isReadable(scriptFile.toPath())) {
-                                Scanner scriptScanner = new Scanner(new FileInputStream(scriptFile));
-                                interact(scriptScanner, true);
-                            }
-                            else {
-                                System.out.println("file not readable");
-                            }
-                        } catch (FileNotFoundException e) {
-                            System.out.println("file not found");
+                        if (Files.isReadable(scriptFile.toPath())) {
+                            Scanner scriptScanner = new Scanner(new FileInputStream(scriptFile));
+                            interact(scriptScanner, true);
                         }
+                        else {
+                            System.out.println("file not readable");
+                        }
+                    } catch (FileNotFoundException e) {
+                        System.out.println("file not found");
                     }
                 }
-                else if (command.equals("exit")) {
-                    break;
-                }
-                else if (command.equals("remove_lower")) {
-                    if (args.length > 1) {
-                        System.out.println("remove_lower doesn't take any same-line arguments");
-                    }
-                    else {
-                        removeLower(readMarine(scanner, quiet));
-                    }
-                }
-                else if (command.equals("replace_if_lower")) {
-                    simpleSingleArg(args,
-                            Long::parseLong,
-                            marines::containsKey,
-                            "replace_if_lower",
-                            "key",
-                            "key not found",
-                            k -> replaceIfLower(k, readMarine(scanner, quiet)));
-                }
-                else if (command.equals("remove_lower_key")) {
-                    simpleSingleArg(args,
-                            Long::parseLong,
-                            k -> true,
-                            "remove_lower_key",
-                            "key",
-                            "",
-                            this::removeLowerKey);
-                }
-                else if (command.equals("group_counting_by_creation_date")) {
-                    groupCountingByCreationDate();
+            }
+            else if (command.equals("exit")) {
+                break;
+            }
+            else if (command.equals("remove_lower")) {
+                if (arg != null) {
+                    System.out.println("remove_lower doesn't take any same-line arguments");
                 }
-                else if (command.equals("filter_greater_than_category")) {
-                    if (args.length > 1) {
-                        System.out.println("filter_greater_than_category doesn't take any same-line arguments");
-                    }
-                    else {
-                        AstartesCategory category = readObject(scanner,
-                                AstartesCategory::valueOf,
-                                c -> true,
-                                "Enter category (one of [" +
-                                        Arrays.stream(AstartesCategory.values()).map(AstartesCategory::toString)
-                                                .collect(Collectors.joining(", ")) + "]): ",
-                                "invalid category",
-                                false,
-                                quiet);
-                        filterGreaterThanCategory(category);
-                    }
+                else {
+                    removeLower(readMarine(scanner, quiet));
                 }
-                else if (command.equals("print_ascending")) {
-                    printAscending();
+            }
+            else if (command.equals("replace_if_lower")) {
+                simpleSingleArg(arg, extraArgs,
+                        Long::parseLong,
+                        marines::containsKey,
+                        "replace_if_lower",
+                        "key",
+                        "key not found",
+                        k -> replaceIfLower(k, readMarine(scanner, quiet)));
+            }
+            else if (command.equals("remove_lower_key")) {
+                simpleSingleArg(arg, extraArgs,
+                        Long::parseLong,
+                        k -> true,
+                        "remove_lower_key",
+                        "key",
+                        "",
+                        this::removeLowerKey);
+            }
+            else if (command.equals("group_counting_by_creation_date")) {
+                groupCountingByCreationDate();
+            }
+            else if (command.equals("filter_greater_than_category")) {
+                if (arg != null) {
+                    System.out.println("filter_greater_than_category doesn't take any same-line arguments");
                 }
                 else {
-                    System.out.println("unknown command");
+                    AstartesCategory category = readObject(scanner,
+                            AstartesCategory::valueOf,
+                            c -> true,
+                            FILTER_CATEGORY_PROMPT,
+                            "invalid category",
+                            false,
+                            quiet);
+                    filterGreaterThanCategory(category);
                 }
             }
+            else if (command.equals("print_ascending")) {
+                printAscending();
+            }
+            else {
+                System.out.println("unknown command");
+            }
             if (!quiet) {
                 System.out.print("> ");
             }
         }
     }
 
+    // the snapshot is only written once the csv is safely on disk, and dropped if the csv save fails
+    private void save() {
+        File csv = new File(saveFilePath);
+        File snapshot = new File(snapshotPath);
+        try {
+            PrintWriter writer = new PrintWriter(saveFilePath);
+            marines.forEach((key, m) -> writer.println(
+                    String.join(", ", key.toString(), m.getId().toString(), m.getName()
+                            , Double.toString(m.getCoordinates().getX())
+                            , Double.toString(m.getCoordinates().getY()), PivoDates.format(m.getCreationDate())
+                            , Float.toString(m.getHealth())
+                            , m.getCategory() == null ? "null" : m.getCategory().toString()
+                            , m.getWeaponType().toString(), m.getMeleeWeapon().toString()
+                            , m.getChapter() == null ? "null" : m.getChapter().getName()
+                            , m.getChapter() == null || m.getChapter().getWorld() == null
+                                    ? "null" : m.getChapter().getWorld())
+            ));
+            writer.close();
+            if (writer.checkError()) {
+                snapshot.delete();
+                System.out.println("problem with save file");
+                return;
+            }
+        } catch (FileNotFoundException e) {
+            snapshot.delete();
+            System.out.println("problem with save file");
+            return;
+        }
+        try {
+            PivoSnapshot.write(snapshot.toPath(), marines, csv.toPath());
+        } catch (IOException e) {
+            snapshot.delete();
+            System.out.println("problem with snapshot file");
+        }
+    }
+
     private static void help() {
         System.out.println("all args written as {arg} must be specified on further lines");
         System.out.println("help print help");
@@ -328,7 +413,8 @@ public class PivoLab {
         System.out.println("type: HashMap<Long, SpaceMarine>");
         System.out.println("number of elements: " + marines.size());
         if (!marines.isEmpty()) {
-            System.out.println("newest marine created on " + marines.values().stream().max(Comparator.comparing(SpaceMarine::getCreationDate)));
+            long newest = marines.values().stream().mapToLong(SpaceMarine::getCreationDate).max().getAsLong();
+            System.out.println("newest marine created on " + PivoDates.format(newest));
         }
     }
 
@@ -337,7 +423,7 @@ public class PivoLab {
         System.out.println("ID: " + marine.getId());
         System.out.println("Name: " + marine.getName());
         System.out.println("Coordinates: " + marine.getCoordinates());
-        System.out.println("Creation date: " + dateFormat.format(marine.getCreationDate()));
+        System.out.println("Creation date: " + PivoDates.format(marine.getCreationDate()));
         System.out.println("Health: " + marine.getHealth());
         System.out.println("Category: " + marine.getCategory());
         System.out.println("Weapon type: " + marine.getWeaponType());
@@ -370,71 +456,61 @@ public class PivoLab {
         }
     }
 
+    // primitive counterpart of readObject, so numeric fields aren't boxed
+    private static double readDouble(Scanner scanner, ToDoubleFunction<String> parse, DoublePredicate isValid, String promptMessage, String errorMessage, boolean quiet) {
+        while (true) {
+            if (!quiet) {
+                System.out.print(promptMessage);
+            }
+            try {
+                double d = parse.applyAsDouble(scanner.nextLine());
+                if (isValid.test(d)) {
+                    return d;
+                }
+            } catch (NumberFormatException ignored) {}
+            System.out.println(errorMessage);
+        }
+    }
+
     private SpaceMarine readMarine(Scanner scanner, boolean quiet) {
-        String name = readObject(scanner,
+        builder.reset();
+        builder.name(readObject(scanner,
                 s -> s,
                 s -> !s.isEmpty(),
-                "Enter name: ",
+                NAME_PROMPT,
                 "name can't be empty",
                 false,
-                quiet);
-
-        double x = readObject(scanner,
-                Double::parseDouble,
-                d -> true,
-                "Enter x coordinate: ",
-                "not a valid coordinate",
-                false,
-                quiet);
-        Double y = readObject(scanner,
-                Double::parseDouble,
-                d -> true,
-                "Enter y coordinate: ",
-                "not a valid coordinate",
-                false,
-                quiet);
+                quiet));
 
-        Coordinates coordinates = new Coordinates(x, y);
+        builder.x(readDouble(scanner, Double::parseDouble, d -> true, X_PROMPT, "not a valid coordinate", quiet));
+        builder.y(readDouble(scanner, Double::parseDouble, d -> true, Y_PROMPT, "not a valid coordinate", quiet));
 
-        Date creationDate = new Date();
+        // parsed with Float.parseFloat; widening to double and back is exact
+        builder.health((float) readDouble(scanner, Float::parseFloat, d -> d > 0, HEALTH_PROMPT, "not a valid health value", quiet));
 
-        Float health = readObject(scanner,
-                Float::parseFloat,
-                f -> f > 0,
-                "Enter health (must be >0): ",
-                "not a valid health value",
-                false,
-                quiet);
-
-        AstartesCategory category = readObject(scanner,
+        builder.category(readObject(scanner,
                 AstartesCategory::valueOf,
                 c -> true,
-                "Enter a category (one of [" + Arrays.stream(AstartesCategory.values())
-                        .map(AstartesCategory::toString)
-                        .collect(Collectors.joining(", ")) + "]) or leave empty: ",
+                CATEGORY_PROMPT,
                 "not a valid category",
                 true,
-                quiet);
+                quiet));
 
-        Weapon weaponType = readObject(scanner,
+        builder.weaponType(readObject(scanner,
                 Weapon::valueOf,
                 w -> true,
-                "Enter a weapong type (one of [" + Arrays.stream(Weapon.values())
-                        .map(Weapon::toString)
-                        .collect(Collectors.joining(", ")) + "]): ",
+                WEAPON_PROMPT,
                 "not a valid weapon type",
                 false,
-                quiet);
+                quiet));
 
-        MeleeWeapon meleeWeapon = readObject(scanner,
+        builder.meleeWeapon(readObject(scanner,
                 MeleeWeapon::valueOf,
                 mw -> true,
-                "Enter a melee weapon type (one of [" + Arrays.stream(MeleeWeapon.values())
-                        .map(MeleeWeapon::toString)
-                        .collect(Collectors.joining(", ")) + "]): ",
+                MELEE_WEAPON_PROMPT,
                 "not a valid melee weapon type",
                 false,
-                quiet);
+                quiet));
 
         boolean needChapter = readObject(scanner,
                 s -> {
@@ -447,16 +523,15 @@ public class PivoLab {
                     }
                 },
                 nc -> true,
-                "Do you want to add a chapter (y/n): ",
+                CHAPTER_PROMPT,
                 "enter 'y' or 'n'",
                 false,
                 quiet);
-        Chapter chapter = null;
         if (needChapter) {
             String chapterName = readObject(scanner,
                     cn -> cn,
                     s -> !s.isEmpty(),
-                    "Enter chapter name: ",
+                    CHAPTER_NAME_PROMPT,
                     "chapter name can't be empty",
                     false,
                     quiet);
@@ -464,14 +539,22 @@ public class PivoLab {
             String world = readObject(scanner,
                     w -> w,
                     w -> true,
-                    "Enter world name or leave empty: ",
+                    WORLD_PROMPT,
                     "",
                     true,
                     quiet);
-            chapter = new Chapter(chapterName, world);
+            builder.chapter(chapterName, world);
+        }
+        return builder.build(++maxid, PivoDates.today());
+    }
+
+    private boolean hasId(Long id) {
+        for (SpaceMarine m : marines.values()) {
+            if (m.getId().equals(id)) {
+                return true;
+            }
         }
-        return new SpaceMarine(++maxid, name, coordinates, creationDate, health,
-                category, weaponType, meleeWeapon, chapter);
+        return false;
     }
 
     private void show() {
@@ -481,49 +564,103 @@ public class PivoLab {
         });
     }
 
-    private void insert(Long key, SpaceMarine marine) {
+    // mutations and subscribe share the PivoLab lock, so a subscriber on another thread
+    // always gets a consistent replay followed by every later change
+    private synchronized void insert(Long key, SpaceMarine marine) {
         marines.put(key, marine);
+        publish(MarineEvent.Type.INSERT, Collections.singletonMap(key, marine), Collections.emptySet());
     }
 
     private void update(Long id, SpaceMarine marine) {
         marine.setId(id);
-        marines.keySet().stream()
-                .filter(k -> marines.get(k).getId().equals(id))
-                .forEach(k -> marines.put(k, marine));
+        replaceAll((k, m) -> m.getId().equals(id) ? marine : m);
     }
 
-    private void removeKey(Long key) {
+    private synchronized void removeKey(Long key) {
         marines.remove(key);
+        publish(MarineEvent.Type.REMOVE, Collections.emptyMap(), Collections.singleton(key));
     }
 
-    private void clear() {
+    private synchronized void clear() {
         marines.clear();
+        publish(MarineEvent.Type.CLEAR, Collections.emptyMap(), Collections.emptySet());
     }
 
     private void removeLower(SpaceMarine marine) {
-        marines.keySet().stream()
-                .filter(k -> marines.get(k).getHealth() < marine.getHealth())
-                .forEach(marines::remove);
+        removeIf((k, m) -> m.getHealth() < marine.getHealth());
     }
 
-    private void replaceIfLower(Long key, SpaceMarine marine) {
+    private synchronized void replaceIfLower(Long key, SpaceMarine marine) {
         if (marine.getHealth() < marines.get(key).getHealth()) {
             marines.put(key, marine);
+            publish(MarineEvent.Type.UPDATE, Collections.singletonMap(key, marine), Collections.emptySet());
         }
     }
 
     private void removeLowerKey(Long key) {
-        marines.keySet().stream()
-                .filter(k -> k < key)
-                .forEach(marines::remove);
+        removeIf((k, m) -> k < key);
+    }
+
+    // bulk operations go over the map once and publish a single event after the whole batch is applied
+    private synchronized void removeIf(BiPredicate<Long, SpaceMarine> filter) {
+        Set<Long> removed = new HashSet<>();
+        marines.entrySet().removeIf(e -> filter.test(e.getKey(), e.getValue()) && removed.add(e.getKey()));
+        publish(MarineEvent.Type.REMOVE, Collections.emptyMap(), removed);
+    }
+
+    private synchronized void insertAll(Map<Long, SpaceMarine> batch) {
+        marines.putAll(batch);
+        maxid = Math.max(maxid, batch.values().stream().mapToLong(SpaceMarine::getId).max().orElse(0L));
+        publish(MarineEvent.Type.INSERT, batch, Collections.emptySet());
+    }
+
+    private synchronized void replaceAll(BiFunction<Long, SpaceMarine, SpaceMarine> replacement) {
+        Map<Long, SpaceMarine> changed = new HashMap<>();
+        marines.forEach((k, m) -> {
+            SpaceMarine replaced = replacement.apply(k, m);
+            if (replaced != m) {
+                changed.put(k, replaced);
+            }
+        });
+        marines.putAll(changed);
+        publish(MarineEvent.Type.UPDATE, changed, Collections.emptySet());
+    }
+
+    // new subscribers first get the current contents as one insert stamped with the current seq,
+    // then every later change in order
+    public synchronized void subscribe(Consumer<MarineEvent> subscriber) {
+        if (!marines.isEmpty()) {
+            subscriber.accept(new MarineEvent(seq, MarineEvent.Type.INSERT, marines, Collections.emptySet()));
+        }
+        subscribers.add(subscriber);
+    }
+
+    // a failing subscriber is dropped so it can't break the command loop or the other subscribers
+    private void publish(MarineEvent.Type type, Map<Long, SpaceMarine> changed, Set<Long> removedKeys) {
+        if (type != MarineEvent.Type.CLEAR && changed.isEmpty() && removedKeys.isEmpty()) {
+            return;
+        }
+        seq++;
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        MarineEvent event = new MarineEvent(seq, type, changed, removedKeys);
+        for (Consumer<MarineEvent> subscriber : subscribers) {
+            try {
+                subscriber.accept(event);
+            } catch (RuntimeException e) {
+                subscribers.remove(subscriber);
+                System.out.println("change subscriber failed and was unsubscribed: " + e);
+            }
+        }
     }
 
     private void groupCountingByCreationDate() {
-        Map<Date, Long> groups = marines.values().stream()
+        Map<Long, Long> groups = marines.values().stream()
                 .collect(Collectors.groupingBy(SpaceMarine::getCreationDate
                         , Collectors.counting()));
         groups.forEach((date, number)
-                -> System.out.println(dateFormat.format(date) + ": " + number));
+                -> System.out.println(PivoDates.format(date) + ": " + number));
     }
 
     private void filterGreaterThanCategory(AstartesCategory category) {
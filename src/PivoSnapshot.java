@@ -0,0 +1,132 @@
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// binary copy of the save file, so startup skips csv parsing;
+// the header records the csv's length and mtime, and the snapshot is only valid for that exact file
+public class PivoSnapshot {
+
+    private static final int MAGIC = 0x5049564F; // "PIVO"
+    private static final int VERSION = 2;
+
+    private PivoSnapshot() {}
+
+    // written to a temp file and moved into place so a crash never leaves a half-written snapshot;
+    // the temp file is created 0600, so it takes the csv's permissions to stay readable by the same users
+    public static void write(Path path, Map<Long, SpaceMarine> marines, Path csv) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            writeTo(tmp, marines, csv.toFile().length(), csv.toFile().lastModified());
+            try {
+                Files.setPosixFilePermissions(tmp, Files.getPosixFilePermissions(csv));
+            } catch (UnsupportedOperationException ignored) {}
+            try {
+                Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void writeTo(Path path, Map<Long, SpaceMarine> marines, long csvLength, long csvModified) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path.toFile())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(csvLength);
+            out.writeLong(csvModified);
+            out.writeInt(marines.size());
+            for (Map.Entry<Long, SpaceMarine> e : marines.entrySet()) {
+                SpaceMarine m = e.getValue();
+                out.writeLong(e.getKey());
+                out.writeLong(m.getId());
+                writeString(out, m.getName());
+                out.writeDouble(m.getCoordinates().getX());
+                out.writeDouble(m.getCoordinates().getY());
+                out.writeLong(m.getCreationDate());
+                out.writeFloat(m.getHealth());
+                out.writeByte(m.getCategory() == null ? -1 : m.getCategory().ordinal());
+                out.writeByte(m.getWeaponType().ordinal());
+                out.writeByte(m.getMeleeWeapon().ordinal());
+                if (m.getChapter() == null) {
+                    out.writeByte(0);
+                } else {
+                    out.writeByte(1);
+                    writeString(out, m.getChapter().getName());
+                    writeString(out, m.getChapter().getWorld());
+                }
+            }
+        }
+    }
+
+    public static Map<Long, SpaceMarine> read(Path path, long csvLength, long csvModified) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path));
+        try {
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+                throw new IOException("not a pivo snapshot");
+            }
+            if (buf.getLong() != csvLength || buf.getLong() != csvModified) {
+                throw new IOException("pivo snapshot is stale");
+            }
+            int n = buf.getInt();
+            Map<Long, SpaceMarine> marines = new HashMap<>();
+            AstartesCategory[] categories = AstartesCategory.values();
+            Weapon[] weapons = Weapon.values();
+            MeleeWeapon[] meleeWeapons = MeleeWeapon.values();
+            for (int i = 0; i < n; i++) {
+                long key = buf.getLong();
+                long id = buf.getLong();
+                String name = readString(buf);
+                Coordinates coordinates = new Coordinates(buf.getDouble(), buf.getDouble());
+                long creationDate = buf.getLong();
+                float health = buf.getFloat();
+                byte category = buf.get();
+                Weapon weaponType = weapons[buf.get()];
+                MeleeWeapon meleeWeapon = meleeWeapons[buf.get()];
+                Chapter chapter = null;
+                if (buf.get() != 0) {
+                    String chapterName = readString(buf);
+                    chapter = new Chapter(chapterName, readString(buf));
+                }
+                marines.put(key, new SpaceMarine(id, name, coordinates, creationDate, health,
+                        category < 0 ? null : categories[category], weaponType, meleeWeapon, chapter));
+            }
+            return marines;
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("corrupt pivo snapshot");
+        }
+    }
+
+    // length -1 stands for null
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) throws IOException {
+        int len = buf.getInt();
+        if (len < 0) {
+            return null;
+        }
+        if (len > buf.remaining()) {
+            throw new IOException("corrupt pivo snapshot");
+        }
+        byte[] bytes = new byte[len];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
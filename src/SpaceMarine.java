@@ -1,10 +1,8 @@
-import java.util.Date;
-
 public class SpaceMarine {
     private Long id; //Поле не может быть null, Значение поля должно быть больше 0, Значение этого поля должно быть уникальным, Значение этого поля должно генерироваться автоматически
     private String name; //Поле не может быть null, Строка не может быть пустой
     private Coordinates coordinates; //Поле не может быть null
-    private java.util.Date creationDate; //Поле не может быть null, Значение этого поля должно генерироваться автоматически
+    private long creationDate; //epoch day, Значение этого поля должно генерироваться автоматически
 
     public Long getId() {
         return id;
@@ -30,19 +28,19 @@ public class SpaceMarine {
         this.coordinates = coordinates;
     }
 
-    public Date getCreationDate() {
+    public long getCreationDate() {
         return creationDate;
     }
 
-    public void setCreationDate(Date creationDate) {
+    public void setCreationDate(long creationDate) {
         this.creationDate = creationDate;
     }
 
-    public Float getHealth() {
+    public float getHealth() {
         return health;
     }
 
-    public void setHealth(Float health) {
+    public void setHealth(float health) {
         this.health = health;
     }
 
@@ -78,13 +76,13 @@ public class SpaceMarine {
         this.chapter = chapter;
     }
 
-    private Float health; //Поле не может быть null, Значение поля должно быть больше 0
+    private float health; //Значение поля должно быть больше 0
     private AstartesCategory category; //Поле может быть null
     private Weapon weaponType; //Поле не может быть null
     private MeleeWeapon meleeWeapon; //Поле не может быть null
     private Chapter chapter; //Поле может быть null
 
-    public SpaceMarine(Long id, String name, Coordinates coordinates, Date creationDate, Float health, AstartesCategory category, Weapon weaponType, MeleeWeapon meleeWeapon, Chapter chapter) {
+    public SpaceMarine(Long id, String name, Coordinates coordinates, long creationDate, float health, AstartesCategory category, Weapon weaponType, MeleeWeapon meleeWeapon, Chapter chapter) {
         this.id = id;
         this.name = name;
         this.coordinates = coordinates;
@@ -95,5 +93,11 @@ public class SpaceMarine {
         this.meleeWeapon = meleeWeapon;
         this.chapter = chapter;
     }
+
+    public SpaceMarine(SpaceMarine other) {
+        this(other.id, other.name, new Coordinates(other.coordinates.getX(), other.coordinates.getY()),
+                other.creationDate, other.health, other.category, other.weaponType, other.meleeWeapon,
+                other.chapter == null ? null : new Chapter(other.chapter.getName(), other.chapter.getWorld()));
+    }
 }
 